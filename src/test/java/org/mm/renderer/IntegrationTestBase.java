@@ -2,13 +2,20 @@ package org.mm.renderer;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
 
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.DataFormatter;
 import org.apache.poi.ss.usermodel.Row;
 import org.apache.poi.ss.usermodel.Sheet;
 import org.apache.poi.ss.usermodel.Workbook;
@@ -63,6 +70,17 @@ public class IntegrationTestBase
    }
 
    protected OWLOntology createOWLOntology() throws OWLOntologyCreationException
+   {
+      return createOWLOntology(ontologyManager);
+   }
+
+   /**
+    * @param ontologyManager
+    *           Manager that owns the new ontology. Use a separate manager for every ontology that is rendered on its
+    *           own thread.
+    * @return An empty ontology with the test ontology IRI as default prefix
+    */
+   protected OWLOntology createOWLOntology(OWLOntologyManager ontologyManager) throws OWLOntologyCreationException
    {
       OWLOntology ontology = ontologyManager.createOntology(IRI.create(ONTOLOGY_ID));
       setDefaultPrefix(ontology);
@@ -71,23 +89,40 @@ public class IntegrationTestBase
 
    private void setDefaultPrefix(OWLOntology ontology)
    {
-      OWLDocumentFormat format = ontologyManager.getOntologyFormat(ontology);
+      OWLDocumentFormat format = ontology.getOWLOntologyManager().getOntologyFormat(ontology);
       prefixManager = (PrefixManager) format.asPrefixOWLOntologyFormat();
       prefixManager.setDefaultPrefix(ONTOLOGY_ID);
    }
 
    protected void setPrefix(OWLOntology ontology, String prefixName, String prefix)
    {
-      OWLDocumentFormat format = ontologyManager.getOntologyFormat(ontology);
+      OWLDocumentFormat format = ontology.getOWLOntologyManager().getOntologyFormat(ontology);
       prefixManager = (PrefixManager) format.asPrefixOWLOntologyFormat();
       prefixManager.setPrefix(prefixName, prefix);
    }
 
    protected Workbook createWorkbook(String sheetName, Set<Label> cells) throws IOException
+   {
+      return createWorkbook(Collections.singletonMap(sheetName, cells));
+   }
+
+   /**
+    * @param sheets
+    *           Cells of each sheet, keyed by sheet name. The sheets are created in the map iteration order.
+    * @return A workbook
+    */
+   protected Workbook createWorkbook(Map<String, Set<Label>> sheets) throws IOException
    {
       Workbook workbook = new XSSFWorkbook();
-      Sheet sheet = workbook.createSheet(sheetName);
+      for (Map.Entry<String, Set<Label>> entry : sheets.entrySet()) {
+         Sheet sheet = workbook.createSheet(entry.getKey());
+         populateSheet(sheet, entry.getValue());
+      }
+      return workbook;
+   }
 
+   private void populateSheet(Sheet sheet, Set<Label> cells)
+   {
       Map<Integer, Row> buffer = new HashMap<Integer, Row>();
       for (Label cell : cells) {
          int rownum = cell.getRowIndex();
@@ -96,9 +131,12 @@ public class IntegrationTestBase
             row = sheet.createRow(rownum);
             buffer.put(rownum, row);
          }
-         row.createCell(cell.columnIndex).setCellValue(cell.getContent());
+         if (cell.isNumeric()) {
+            row.createCell(cell.columnIndex).setCellValue(cell.getNumericContent());
+         } else {
+            row.createCell(cell.columnIndex).setCellValue(cell.getContent());
+         }
       }
-      return workbook;
    }
 
    protected SpreadSheetDataSource createSpreadsheetDataSource(String sheetName, Set<Label> cells)
@@ -146,6 +184,33 @@ public class IntegrationTestBase
       return createTextRendering(sheetName, cells, DEFAULT_CURRENT_LOCATION, expression, settings);
    }
 
+   /**
+    * Renders the expression once for every row in the given range with a single data source and a single text
+    * renderer, moving the current location down the first column.
+    *
+    * @param startRowNumber
+    *           1-based number of the first row
+    * @param endRowNumber
+    *           1-based number of the last row, inclusive
+    * @return One rendering per row, in row order
+    */
+   protected List<Optional<? extends TextRendering>> createTextRenderings(String sheetName, Set<Label> cells,
+         int startRowNumber, int endRowNumber, String expression, ReferenceSettings settings)
+         throws MappingMasterException, IOException, ParseException
+   {
+      SpreadSheetDataSource dataSource = createSpreadsheetDataSource(sheetName, cells);
+
+      TextRenderer renderer = new TextRenderer(dataSource);
+      MMExpressionNode mmExpressionNode = parseExpression(expression, settings);
+
+      List<Optional<? extends TextRendering>> renderings = new ArrayList<>();
+      for (int rowNumber = startRowNumber; rowNumber <= endRowNumber; rowNumber++) {
+         dataSource.setCurrentLocation(new SpreadsheetLocation(sheetName, 1, rowNumber));
+         renderings.add(renderer.render(mmExpressionNode));
+      }
+      return renderings;
+   }
+
    protected Optional<? extends OWLRendering> createOWLAPIRendering(OWLOntology ontology, String expression,
          ReferenceSettings settings) throws MappingMasterException, IOException, ParseException
    {
@@ -162,7 +227,28 @@ public class IntegrationTestBase
          Set<Label> cells, SpreadsheetLocation currentLocation, String expression, ReferenceSettings settings)
                throws MappingMasterException, IOException, ParseException
    {
-      SpreadSheetDataSource dataSource = createSpreadsheetDataSource(sheetName, cells);
+      return createOWLAPIRendering(ontology, Collections.singletonMap(sheetName, cells), currentLocation, expression,
+            settings);
+   }
+
+   protected Optional<? extends OWLRendering> createOWLAPIRendering(OWLOntology ontology,
+         Map<String, Set<Label>> sheets, SpreadsheetLocation currentLocation, String expression,
+         ReferenceSettings settings) throws MappingMasterException, IOException, ParseException
+   {
+      Workbook workbook = createWorkbook(sheets);
+      return createOWLAPIRendering(ontology, workbook, currentLocation, expression, settings);
+   }
+
+   /**
+    * Renders the expression with a data source of its own over the given workbook. POI does not support using one
+    * workbook object from several threads, so renderings that run concurrently must each be given their own workbook
+    * and their own ontology.
+    */
+   protected Optional<? extends OWLRendering> createOWLAPIRendering(OWLOntology ontology, Workbook workbook,
+         SpreadsheetLocation currentLocation, String expression, ReferenceSettings settings)
+         throws MappingMasterException, IOException, ParseException
+   {
+      SpreadSheetDataSource dataSource = new SpreadSheetDataSource(workbook);
       dataSource.setCurrentLocation(currentLocation);
       
       OWLAPIOntology ontologySource = new OWLAPIOntology(ontology);
@@ -172,6 +258,221 @@ public class IntegrationTestBase
       return renderer.render(mmExpressionNode);
    }
 
+   /**
+    * Renders the expression once for every row in the given range, moving the current location down the first
+    * column. A single data source and a single renderer are used for the whole run, the same way a mapping is
+    * applied to a sheet.
+    *
+    * @param startRowNumber
+    *           1-based number of the first row
+    * @param endRowNumber
+    *           1-based number of the last row, inclusive
+    * @return One rendering per row, in row order. Rows that the expression skips give an empty rendering.
+    */
+   protected List<Optional<? extends OWLRendering>> createOWLAPIRenderings(OWLOntology ontology, String sheetName,
+         Set<Label> cells, int startRowNumber, int endRowNumber, String expression, ReferenceSettings settings)
+         throws MappingMasterException, IOException, ParseException
+   {
+      Workbook workbook = createWorkbook(sheetName, cells);
+      return createOWLAPIRenderings(ontology, workbook, sheetName, startRowNumber, endRowNumber, expression, settings);
+   }
+
+   /**
+    * Renders the expression once for every row in the used range of the sheet, from its first to its last
+    * populated row, as recorded by POI. No row outside that range is rendered.
+    *
+    * @return One rendering per row, in row order. Rows that the expression skips give an empty rendering.
+    */
+   protected List<Optional<? extends OWLRendering>> createOWLAPIRenderings(OWLOntology ontology, String sheetName,
+         Set<Label> cells, String expression, ReferenceSettings settings)
+         throws MappingMasterException, IOException, ParseException
+   {
+      Workbook workbook = createWorkbook(sheetName, cells);
+      Sheet sheet = workbook.getSheet(sheetName);
+      if (sheet.getPhysicalNumberOfRows() == 0) {
+         return new ArrayList<>();
+      }
+      return createOWLAPIRenderings(ontology, workbook, sheetName, sheet.getFirstRowNum() + 1,
+            sheet.getLastRowNum() + 1, expression, settings); // POI is 0-based
+   }
+
+   protected List<Optional<? extends OWLRendering>> createOWLAPIRenderings(OWLOntology ontology, Workbook workbook,
+         String sheetName, int startRowNumber, int endRowNumber, String expression, ReferenceSettings settings)
+         throws MappingMasterException, IOException, ParseException
+   {
+      return createOWLAPIRenderings(ontology, workbook, sheetName, startRowNumber, endRowNumber, expression, settings,
+            null);
+   }
+
+   /**
+    * Renders the expression once for every row in the given range, like
+    * {@link #createOWLAPIRenderings(OWLOntology, String, Set, int, int, String, ReferenceSettings)}, but a row that
+    * fails with a {@link RendererException} does not stop the run. The failure is added to the given error list and
+    * the row gives an empty rendering.
+    *
+    * @param errors
+    *           The list that receives one record per failed row, in row order
+    * @return One rendering per row, in row order. Rows that the expression skips or that fail give an empty
+    *         rendering.
+    */
+   protected List<Optional<? extends OWLRendering>> createOWLAPIRenderings(OWLOntology ontology, String sheetName,
+         Set<Label> cells, int startRowNumber, int endRowNumber, String expression, ReferenceSettings settings,
+         List<RenderingError> errors) throws MappingMasterException, IOException, ParseException
+   {
+      Workbook workbook = createWorkbook(sheetName, cells);
+      return createOWLAPIRenderings(ontology, workbook, sheetName, startRowNumber, endRowNumber, expression, settings,
+            errors);
+   }
+
+   /**
+    * @param errors
+    *           The list that receives one record per row that fails with a {@link RendererException}, or null to let
+    *           the first failure end the run
+    */
+   private List<Optional<? extends OWLRendering>> createOWLAPIRenderings(OWLOntology ontology, Workbook workbook,
+         String sheetName, int startRowNumber, int endRowNumber, String expression, ReferenceSettings settings,
+         List<RenderingError> errors) throws MappingMasterException, IOException, ParseException
+   {
+      SpreadSheetDataSource dataSource = new SpreadSheetDataSource(workbook);
+
+      OWLAPIOntology ontologySource = new OWLAPIOntology(ontology);
+
+      OWLRenderer renderer = new OWLRenderer(ontologySource, dataSource);
+      MMExpressionNode mmExpressionNode = parseExpression(expression, settings);
+
+      List<Optional<? extends OWLRendering>> renderings = new ArrayList<>();
+      for (int rowNumber = startRowNumber; rowNumber <= endRowNumber; rowNumber++) {
+         dataSource.setCurrentLocation(new SpreadsheetLocation(sheetName, 1, rowNumber));
+         try {
+            renderings.add(renderer.render(mmExpressionNode));
+         } catch (RendererException e) {
+            if (errors == null) {
+               throw e;
+            }
+            errors.add(new RenderingError(sheetName, rowNumber, e.getMessage()));
+            renderings.add(Optional.empty());
+         }
+      }
+      return renderings;
+   }
+
+   /**
+    * Merges the present renderings of a run into a set, so an axiom that several rows emit is counted once.
+    *
+    * @return The distinct axioms of all present renderings of a run, as they end up in the ontology
+    */
+   protected Set<OWLAxiom> collectOWLAxioms(List<Optional<? extends OWLRendering>> renderings)
+   {
+      Set<OWLAxiom> axioms = new HashSet<>();
+      for (Optional<? extends OWLRendering> rendering : renderings) {
+         if (rendering.isPresent()) {
+            axioms.addAll(rendering.get().getOWLAxioms());
+         }
+      }
+      return axioms;
+   }
+
+   /**
+    * Splits the used range of a sheet into row ranges that hold about the same number of populated cells, so that
+    * long blank stretches do not produce partitions with no work in them. A cell counts as populated when its
+    * formatted value is not empty, so cells holding an empty string count as blank, the same way the empty-location
+    * directives treat them. Blank rows after the last split are merged into the partition before them, so only a
+    * sheet without any populated cell gives a partition with no work in it.
+    * <p>
+    * Partitions are balanced by cell count only. There is no mode that targets a byte size per partition, since an
+    * in-memory workbook does not tell how many bytes a row takes.
+    *
+    * @param numberOfPartitions
+    *           Maximum number of partitions to return
+    * @return Contiguous, non-overlapping row ranges in row order that together cover the used range of the sheet
+    *         exactly once
+    */
+   protected List<RowRange> partitionRows(Sheet sheet, int numberOfPartitions)
+   {
+      if (numberOfPartitions < 1) {
+         throw new IllegalArgumentException("Number of partitions must be at least 1: " + numberOfPartitions);
+      }
+      List<RowRange> partitions = new ArrayList<>();
+      if (sheet.getPhysicalNumberOfRows() == 0) {
+         return partitions;
+      }
+      DataFormatter formatter = new DataFormatter();
+      int totalCells = 0;
+      for (Row row : sheet) {
+         totalCells += countPopulatedCells(row, formatter);
+      }
+      int cellsPerPartition = Math.max(1, (totalCells + numberOfPartitions - 1) / numberOfPartitions);
+
+      int firstRowIndex = sheet.getFirstRowNum();
+      int lastRowIndex = sheet.getLastRowNum();
+      int startRowIndex = firstRowIndex;
+      int cellsInPartition = 0;
+      for (int rowIndex = firstRowIndex; rowIndex <= lastRowIndex; rowIndex++) {
+         Row row = sheet.getRow(rowIndex);
+         if (row != null) {
+            cellsInPartition += countPopulatedCells(row, formatter);
+         }
+         if (rowIndex < lastRowIndex && cellsInPartition >= cellsPerPartition
+               && partitions.size() < numberOfPartitions - 1) {
+            partitions.add(new RowRange(startRowIndex + 1, rowIndex + 1)); // POI is 0-based
+            startRowIndex = rowIndex + 1;
+            cellsInPartition = 0;
+         }
+      }
+      if (cellsInPartition == 0 && !partitions.isEmpty()) {
+         RowRange lastPartition = partitions.remove(partitions.size() - 1);
+         partitions.add(new RowRange(lastPartition.getStartRowNumber(), lastRowIndex + 1));
+      } else {
+         partitions.add(new RowRange(startRowIndex + 1, lastRowIndex + 1));
+      }
+      return partitions;
+   }
+
+   private int countPopulatedCells(Row row, DataFormatter formatter)
+   {
+      int populatedCells = 0;
+      for (Cell cell : row) {
+         if (!formatter.formatCellValue(cell).isEmpty()) {
+            populatedCells++;
+         }
+      }
+      return populatedCells;
+   }
+
+   /**
+    * Compares two versions of the cells of a sheet. Only cell content is compared, as text or as numeric value, so a
+    * change of cell style or data format alone is not reported.
+    *
+    * @return 1-based numbers of the rows in which at least one cell was added, removed or had its content changed, in
+    *         row order
+    */
+   protected SortedSet<Integer> findChangedRows(Set<Label> oldCells, Set<Label> newCells)
+   {
+      Map<Integer, Map<Integer, Object>> oldRows = indexCellsByRow(oldCells);
+      Map<Integer, Map<Integer, Object>> newRows = indexCellsByRow(newCells);
+
+      Set<Integer> rowIndexes = new HashSet<>(oldRows.keySet());
+      rowIndexes.addAll(newRows.keySet());
+
+      SortedSet<Integer> changedRows = new TreeSet<>();
+      for (int rowIndex : rowIndexes) {
+         if (!Objects.equals(oldRows.get(rowIndex), newRows.get(rowIndex))) {
+            changedRows.add(rowIndex + 1); // POI is 0-based
+         }
+      }
+      return changedRows;
+   }
+
+   private Map<Integer, Map<Integer, Object>> indexCellsByRow(Set<Label> cells)
+   {
+      Map<Integer, Map<Integer, Object>> rows = new HashMap<>();
+      for (Label cell : cells) {
+         Object value = cell.isNumeric() ? cell.getNumericContent() : cell.getContent();
+         rows.computeIfAbsent(cell.getRowIndex(), rowIndex -> new HashMap<>()).put(cell.getColumnIndex(), value);
+      }
+      return rows;
+   }
+
    /**
     * @param content
     *           Content of the cell
@@ -186,6 +487,20 @@ public class IntegrationTestBase
       return new Label(content, columnNumber - 1, rowNumber - 1); // POI is 0-based
    }
 
+   /**
+    * @param content
+    *           Numeric content of the cell, stored as a native POI numeric value
+    * @param columnNumber
+    *           1-based column number
+    * @param rowNumber
+    *           1-based row number
+    * @return A cell
+    */
+   protected Label createCell(double content, int columnNumber, int rowNumber)
+   {
+      return new Label(content, columnNumber - 1, rowNumber - 1); // POI is 0-based
+   }
+
    protected Set<Label> createCells(Label... cells)
    {
       Set<Label> cellSet = new HashSet<>();
@@ -339,6 +654,7 @@ public class IntegrationTestBase
    public class Label
    {
       private String content;
+      private Double numericContent;
       private int columnIndex;
       private int rowIndex;
 
@@ -349,11 +665,28 @@ public class IntegrationTestBase
          this.rowIndex = rowIndex;
       }
 
+      public Label(double numericContent, int columnIndex, int rowIndex)
+      {
+         this.numericContent = numericContent;
+         this.columnIndex = columnIndex;
+         this.rowIndex = rowIndex;
+      }
+
       public String getContent()
       {
          return content;
       }
 
+      public boolean isNumeric()
+      {
+         return numericContent != null;
+      }
+
+      public double getNumericContent()
+      {
+         return numericContent;
+      }
+
       public int getColumnIndex()
       {
          return columnIndex;
@@ -364,4 +697,74 @@ public class IntegrationTestBase
          return rowIndex;
       }
    }
+
+   public class RowRange
+   {
+      private int startRowNumber;
+      private int endRowNumber;
+
+      /**
+       * @param startRowNumber
+       *           1-based number of the first row
+       * @param endRowNumber
+       *           1-based number of the last row, inclusive
+       */
+      public RowRange(int startRowNumber, int endRowNumber)
+      {
+         this.startRowNumber = startRowNumber;
+         this.endRowNumber = endRowNumber;
+      }
+
+      public int getStartRowNumber()
+      {
+         return startRowNumber;
+      }
+
+      public int getEndRowNumber()
+      {
+         return endRowNumber;
+      }
+   }
+
+   public class RenderingError
+   {
+      private String sheetName;
+      private int rowNumber;
+      private String message;
+
+      /**
+       * The renderer reports a failure for the whole expression and does not say which cell of the row caused it,
+       * so the record holds the row of the current location rather than a cell.
+       *
+       * @param rowNumber
+       *           1-based number of the row that failed
+       */
+      public RenderingError(String sheetName, int rowNumber, String message)
+      {
+         this.sheetName = sheetName;
+         this.rowNumber = rowNumber;
+         this.message = message;
+      }
+
+      public String getSheetName()
+      {
+         return sheetName;
+      }
+
+      public int getRowNumber()
+      {
+         return rowNumber;
+      }
+
+      public String getMessage()
+      {
+         return message;
+      }
+
+      @Override
+      public String toString()
+      {
+         return sheetName + "!" + rowNumber + ": " + message;
+      }
+   }
 }
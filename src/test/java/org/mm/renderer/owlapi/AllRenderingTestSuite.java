@@ -10,7 +10,8 @@ import org.junit.runners.Suite.SuiteClasses;
    NamedIndividualRenderingTests.class,
    NameResolutionTests.class,
    CellProcessingTests.class,
-   DirectiveTests.class })
+   DirectiveTests.class,
+   ConcurrencyTests.class })
 public class AllRenderingTestSuite
 {
    public interface TestCategory {}
@@ -20,4 +21,5 @@ public class AllRenderingTestSuite
    public interface NameResolutionTest extends TestCategory {}
    public interface CellProcessingTest extends TestCategory {}
    public interface DirectiveTest extends TestCategory {}
+   public interface ConcurrencyTest extends TestCategory {}
 }
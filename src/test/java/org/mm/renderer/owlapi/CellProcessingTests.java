@@ -8,7 +8,7 @@ import org.mm.renderer.owlapi.AllRenderingTestSuite.CellProcessingTest;
 
 @RunWith(Categories.class)
 @IncludeCategory(CellProcessingTest.class)
-@SuiteClasses({ BasicTest.class, ReferenceTest.class })
+@SuiteClasses({ BasicTest.class, ReferenceTest.class, ConcurrentRenderingTest.class })
 public class CellProcessingTests
 {
    // NO-OP
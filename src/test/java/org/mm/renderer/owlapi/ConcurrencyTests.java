@@ -0,0 +1,15 @@
+package org.mm.renderer.owlapi;
+
+import org.junit.experimental.categories.Categories;
+import org.junit.experimental.categories.Categories.IncludeCategory;
+import org.junit.runner.RunWith;
+import org.junit.runners.Suite.SuiteClasses;
+import org.mm.renderer.owlapi.AllRenderingTestSuite.ConcurrencyTest;
+
+@RunWith(Categories.class)
+@IncludeCategory(ConcurrencyTest.class)
+@SuiteClasses({ ConcurrentRenderingTest.class })
+public class ConcurrencyTests
+{
+   // NO-OP
+}
@@ -0,0 +1,288 @@
+package org.mm.renderer.owlapi;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.Class;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.Declaration;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.IRI;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.mm.core.settings.ReferenceSettings;
+import org.mm.core.settings.ValueEncodingSetting;
+import org.mm.renderer.IntegrationTestBase;
+import org.mm.renderer.owlapi.AllRenderingTestSuite.CellProcessingTest;
+import org.mm.renderer.owlapi.AllRenderingTestSuite.ConcurrencyTest;
+import org.mm.rendering.owlapi.OWLRendering;
+import org.mm.ss.SpreadsheetLocation;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLOntology;
+
+public class ConcurrentRenderingTest extends IntegrationTestBase
+{
+   private static final int NUMBER_OF_ROWS = 200;
+   private static final int NUMBER_OF_THREADS = 8;
+   private static final int SPARSE_BLOCK_SIZE = 10;
+   private static final int SPARSE_LAST_ROW = 500;
+
+   private ReferenceSettings settings;
+
+   @Before
+   public void setUp()
+   {
+      settings = new ReferenceSettings();
+      settings.setValueEncodingSetting(ValueEncodingSetting.RDF_ID);
+   }
+
+   /**
+    * Smoke test for rendering the rows of a sheet in parallel. The renderings are fully independent: each worker
+    * thread loads its own workbook, and each rendering uses its own data source and its own ontology. Nothing is
+    * shared between threads, so this does not cover a workbook snapshot that several renderings could share.
+    * <p>
+    * - Precondition:<br />
+    *    + The target sheet cells must not be empty,<br />
+    *    + No necessary predefined classes in the ontology.
+    */
+   @Test
+   @Category(ConcurrencyTest.class)
+   public void TestIndependentRenderingsOnThreads() throws Exception
+   {
+      Set<Label> cells = new HashSet<>();
+      for (int row = 1; row <= NUMBER_OF_ROWS; row++) {
+         cells.add(createCell("Car" + row, 1, row));
+      }
+
+      String expression = "Class: @A*";
+
+      List<Set<OWLAxiom>> results = renderRowsOnThreads(cells, NUMBER_OF_ROWS, expression);
+      for (int row = 1; row <= NUMBER_OF_ROWS; row++) {
+         Set<OWLAxiom> axioms = results.get(row - 1);
+         assertThat(axioms, hasSize(1));
+         assertThat(axioms, containsInAnyOrder(Declaration(Class(IRI(ONTOLOGY_ID, "Car" + row)))));
+      }
+   }
+
+   /**
+    * Test the camel-case encoding directive on every row of a sheet from several threads at once.
+    * <p>
+    * - Expected results:<br />
+    *    + Every row is encoded from its own cell value, whatever else runs on the same thread.
+    */
+   @Test
+   @Category(ConcurrencyTest.class)
+   public void TestCamelCaseEncodeOnThreads() throws Exception
+   {
+      Set<Label> cells = new HashSet<>();
+      for (int row = 1; row <= NUMBER_OF_ROWS; row++) {
+         cells.add(createCell("Red Car " + row, 1, row));
+      }
+
+      String expression = "Class: @A*(mm:camelCaseEncode)";
+
+      List<Set<OWLAxiom>> results = renderRowsOnThreads(cells, NUMBER_OF_ROWS, expression);
+      for (int row = 1; row <= NUMBER_OF_ROWS; row++) {
+         Set<OWLAxiom> axioms = results.get(row - 1);
+         assertThat(axioms, hasSize(1));
+         assertThat(axioms, containsInAnyOrder(Declaration(Class(IRI(ONTOLOGY_ID, "RedCar" + row)))));
+      }
+   }
+
+   /**
+    * Test that the row partitions of a sheet with a long blank stretch cover its used range exactly once and that no
+    * partition is left without populated cells.
+    */
+   @Test
+   @Category(CellProcessingTest.class)
+   public void TestRowPartitionsCoverSheetExactlyOnce() throws Exception
+   {
+      Set<Label> cells = createSparseCells();
+      Sheet sheet = createWorkbook(SHEET1, cells).getSheet(SHEET1);
+
+      List<RowRange> partitions = partitionRows(sheet, NUMBER_OF_THREADS);
+      assertThat(partitions.size(), is(lessThanOrEqualTo(NUMBER_OF_THREADS)));
+      assertThat(partitions.get(0).getStartRowNumber(), is(1));
+      assertThat(partitions.get(partitions.size() - 1).getEndRowNumber(), is(SPARSE_LAST_ROW));
+
+      int expectedStartRowNumber = 1;
+      for (RowRange partition : partitions) {
+         assertThat(partition.getStartRowNumber(), is(expectedStartRowNumber));
+         assertThat(partition.getEndRowNumber(), is(greaterThanOrEqualTo(partition.getStartRowNumber())));
+
+         int populatedCells = 0;
+         for (Label cell : cells) {
+            int rowNumber = cell.getRowIndex() + 1;
+            if (rowNumber >= partition.getStartRowNumber() && rowNumber <= partition.getEndRowNumber()) {
+               populatedCells++;
+            }
+         }
+         assertThat(populatedCells, is(greaterThan(0)));
+         expectedStartRowNumber = partition.getEndRowNumber() + 1;
+      }
+   }
+
+   /**
+    * Test that cells holding an empty string do not count as populated when a sheet is partitioned, so that a run of
+    * such cells does not fill a partition on its own.
+    */
+   @Test
+   @Category(CellProcessingTest.class)
+   public void TestRowPartitionsIgnoreEmptyStringCells() throws Exception
+   {
+      Set<Label> cells = new HashSet<>();
+      for (int row = 1; row <= SPARSE_BLOCK_SIZE; row++) {
+         cells.add(createCell("", 1, row));
+      }
+      for (int row = SPARSE_BLOCK_SIZE + 1; row <= 2 * SPARSE_BLOCK_SIZE; row++) {
+         cells.add(createCell("Car" + row, 1, row));
+      }
+      Sheet sheet = createWorkbook(SHEET1, cells).getSheet(SHEET1);
+
+      List<RowRange> partitions = partitionRows(sheet, 2);
+      assertThat(partitions, hasSize(2));
+      for (RowRange partition : partitions) {
+         assertThat(partition.getEndRowNumber(), is(greaterThan(SPARSE_BLOCK_SIZE)));
+      }
+   }
+
+   /**
+    * Test that cells holding an empty string at the end of a sheet do not make up a partition of their own.
+    */
+   @Test
+   @Category(CellProcessingTest.class)
+   public void TestRowPartitionsMergeEmptyStringTail() throws Exception
+   {
+      Label cellA1 = createCell("Car", 1, 1);
+      Label cellA2 = createCell("", 1, 2);
+      Label cellA3 = createCell("", 1, 3);
+      Sheet sheet = createWorkbook(SHEET1, createCells(cellA1, cellA2, cellA3)).getSheet(SHEET1);
+
+      List<RowRange> partitions = partitionRows(sheet, 2);
+      assertThat(partitions, hasSize(1));
+      assertThat(partitions.get(0).getStartRowNumber(), is(1));
+      assertThat(partitions.get(0).getEndRowNumber(), is(3));
+   }
+
+   /**
+    * Test rendering the row partitions of a sheet on several threads, each partition over a workbook of its own.
+    * Together the partitions must render every populated row once.
+    * <p>
+    * - Precondition:<br />
+    *    + No necessary predefined classes in the ontology.
+    */
+   @Test
+   @Category(ConcurrencyTest.class)
+   public void TestPartitionedRenderingOnThreads() throws Exception
+   {
+      Set<Label> cells = createSparseCells();
+      List<RowRange> partitions = partitionRows(createWorkbook(SHEET1, cells).getSheet(SHEET1), NUMBER_OF_THREADS);
+
+      String expression = "Class: @A*(mm:SkipIfEmptyLocation)";
+
+      ExecutorService executor = Executors.newFixedThreadPool(NUMBER_OF_THREADS);
+      try {
+         List<Future<List<Optional<? extends OWLRendering>>>> results = new ArrayList<>();
+         for (RowRange partition : partitions) {
+            OWLOntology ontology = createOWLOntology(OWLManager.createOWLOntologyManager());
+            results.add(executor.submit(() -> createOWLAPIRenderings(ontology, SHEET1, cells,
+                  partition.getStartRowNumber(), partition.getEndRowNumber(), expression, settings)));
+         }
+         List<OWLAxiom> axioms = new ArrayList<>();
+         for (Future<List<Optional<? extends OWLRendering>>> result : results) {
+            for (Optional<? extends OWLRendering> rendering : result.get()) {
+               if (rendering.isPresent()) {
+                  axioms.addAll(rendering.get().getOWLAxioms());
+               }
+            }
+         }
+         List<OWLAxiom> expectedAxioms = new ArrayList<>();
+         for (Label cell : cells) {
+            expectedAxioms.add(Declaration(Class(IRI(ONTOLOGY_ID, cell.getContent()))));
+         }
+         assertThat(axioms, hasSize(cells.size()));
+         assertThat(axioms, containsInAnyOrder(expectedAxioms.toArray(new OWLAxiom[0])));
+      } finally {
+         executor.shutdownNow();
+      }
+   }
+
+   /**
+    * Renders the expression once for every row from the first to the given last row on a pool of worker threads.
+    * Each worker builds its own workbook from the cells and takes every n-th row, and each row is rendered with its
+    * own data source and its own ontology.
+    *
+    * @return The axioms of each row, in row order
+    */
+   private List<Set<OWLAxiom>> renderRowsOnThreads(Set<Label> cells, int lastRowNumber, String expression)
+         throws Exception
+   {
+      List<OWLOntology> ontologies = new ArrayList<>();
+      for (int row = 1; row <= lastRowNumber; row++) {
+         ontologies.add(createOWLOntology(OWLManager.createOWLOntologyManager()));
+      }
+
+      ExecutorService executor = Executors.newFixedThreadPool(NUMBER_OF_THREADS);
+      try {
+         List<Future<Map<Integer, Set<OWLAxiom>>>> workers = new ArrayList<>();
+         for (int worker = 1; worker <= NUMBER_OF_THREADS; worker++) {
+            int firstRowNumber = worker;
+            workers.add(executor.submit(() -> {
+               Workbook workbook = createWorkbook(SHEET1, cells);
+               Map<Integer, Set<OWLAxiom>> axiomsByRow = new HashMap<>();
+               for (int row = firstRowNumber; row <= lastRowNumber; row += NUMBER_OF_THREADS) {
+                  SpreadsheetLocation location = new SpreadsheetLocation(SHEET1, 1, row);
+                  Optional<? extends OWLRendering> result = createOWLAPIRendering(ontologies.get(row - 1), workbook,
+                        location, expression, settings);
+                  axiomsByRow.put(row, result.get().getOWLAxioms());
+               }
+               return axiomsByRow;
+            }));
+         }
+         Map<Integer, Set<OWLAxiom>> axiomsByRow = new HashMap<>();
+         for (Future<Map<Integer, Set<OWLAxiom>>> worker : workers) {
+            axiomsByRow.putAll(worker.get());
+         }
+         List<Set<OWLAxiom>> results = new ArrayList<>();
+         for (int row = 1; row <= lastRowNumber; row++) {
+            results.add(axiomsByRow.get(row));
+         }
+         return results;
+      } finally {
+         executor.shutdownNow();
+      }
+   }
+
+   /**
+    * @return Cells in column A of the first and last few rows of the sheet, with a long blank stretch in between
+    */
+   private Set<Label> createSparseCells()
+   {
+      Set<Label> cells = new HashSet<>();
+      for (int row = 1; row <= SPARSE_BLOCK_SIZE; row++) {
+         cells.add(createCell("Car" + row, 1, row));
+      }
+      for (int row = SPARSE_LAST_ROW - SPARSE_BLOCK_SIZE + 1; row <= SPARSE_LAST_ROW; row++) {
+         cells.add(createCell("Car" + row, 1, row));
+      }
+      return cells;
+   }
+}
@@ -8,7 +8,7 @@ import org.mm.renderer.owlapi.AllRenderingTestSuite.DirectiveTest;
 
 @RunWith(Categories.class)
 @IncludeCategory(DirectiveTest.class)
-@SuiteClasses({ BasicTest.class, ReferenceTest.class })
+@SuiteClasses({ BasicTest.class, ReferenceTest.class, RowRangeTest.class })
 public class DirectiveTests
 {
    // NO-OP
@@ -8,7 +8,7 @@ import org.mm.renderer.owlapi.AllRenderingTestSuite.NameResolutionTest;
 
 @RunWith(Categories.class)
 @IncludeCategory(NameResolutionTest.class)
-@SuiteClasses({ BasicTest.class, ReferenceTest.class })
+@SuiteClasses({ BasicTest.class, ReferenceTest.class, RowRangeTest.class })
 public class NameResolutionTests
 {
    // NO-OP
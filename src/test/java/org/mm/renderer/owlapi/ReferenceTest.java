@@ -18,6 +18,8 @@ import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.Named
 import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.ObjectProperty;
 import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.ObjectPropertyAssertion;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 
@@ -63,6 +65,7 @@ public class ReferenceTest extends IntegrationTestBase
    private static final OWLClass BMW_CAR = Class(IRI(ONTOLOGY_ID, "BMWCar"));
    private static final OWLClass CAR_BMW = Class(IRI(ONTOLOGY_ID, "CarBMW"));
    private static final OWLClass BAYERISCHE_MOTOREN_WERKE = Class(IRI(ONTOLOGY_ID, "BayerischeMotorenWerke"));
+   private static final OWLClass BAYERISCHE_MOTOREN_WERKE_SNAKECASE = Class(IRI(ONTOLOGY_ID, "Bayerische_Motoren_Werke"));
    private static final OWLClass ZYVOX = Class(IRI(ONTOLOGY_ID, "Zyvox"));
    private static final OWLClass DEFAULT_NAME = Class(IRI(ONTOLOGY_ID, "DefaultName"));
    private static final OWLObjectProperty HAS_PARENT = ObjectProperty(IRI(ONTOLOGY_ID, "hasParent"));
@@ -156,6 +159,97 @@ public class ReferenceTest extends IntegrationTestBase
       assertThat(axioms, containsInAnyOrder(Declaration(CAR)));
    }
 
+   /**
+    * Test the class declaration with fully-qualified reference to a sheet other than the current one.
+    * <p>
+    * - Precondition:<br />
+    *    + The workbook must have more than one sheet,<br />
+    *    + The target sheet cell must not be empty,<br />
+    *    + No necessary predefined classes in the ontology.
+    */
+   @Test
+   @Category(NameResolutionTest.class)
+   public void TestAbsoluteReferenceWithOtherSheetName() throws Exception
+   {
+      Map<String, Set<Label>> sheets = new LinkedHashMap<>();
+      sheets.put(SHEET1, createCells(createCell("fred", 1, 1)));
+      sheets.put(SHEET2, createCells(createCell("Car", 1, 1)));
+      sheets.put(SHEET3, createCells(createCell("Person", 1, 1)));
+
+      String expression = "Class: @'Sheet2'!A1";
+
+      Optional<? extends OWLRendering> result = createOWLAPIRendering(ontology, sheets, DEFAULT_CURRENT_LOCATION, expression, settings);
+      assertThat(result.isPresent(), is(true));
+
+      Set<OWLAxiom> axioms = result.get().getOWLAxioms();
+      assertThat(axioms, hasSize(1));
+      assertThat(axioms, containsInAnyOrder(Declaration(CAR)));
+   }
+
+   /**
+    * Test the class declaration with unqualified reference in a workbook with several sheets. The reference must
+    * resolve against the sheet of the current location.
+    * <p>
+    * - Precondition:<br />
+    *    + The workbook must have more than one sheet,<br />
+    *    + The target sheet cell must not be empty,<br />
+    *    + No necessary predefined classes in the ontology.
+    */
+   @Test
+   @Category(NameResolutionTest.class)
+   public void TestAbsoluteReferenceInMultiSheetWorkbook() throws Exception
+   {
+      Map<String, Set<Label>> sheets = new LinkedHashMap<>();
+      sheets.put(SHEET1, createCells(createCell("Car", 1, 1)));
+      sheets.put(SHEET2, createCells(createCell("BMW", 1, 1)));
+      sheets.put(SHEET3, createCells(createCell("Person", 1, 1)));
+
+      String expression = "Class: @A1";
+
+      Optional<? extends OWLRendering> result = createOWLAPIRendering(ontology, sheets, DEFAULT_CURRENT_LOCATION, expression, settings);
+      assertThat(result.isPresent(), is(true));
+
+      Set<OWLAxiom> axioms = result.get().getOWLAxioms();
+      assertThat(axioms, hasSize(1));
+      assertThat(axioms, containsInAnyOrder(Declaration(CAR)));
+   }
+
+   /**
+    * Test the individual declaration with class and property assertions whose values come from the same cell
+    * address on different sheets. The value of the first sheet also appears on the last one.
+    * <p>
+    * - Precondition:<br />
+    *    + The workbook must have more than one sheet,<br />
+    *    + The target sheet cells must not be empty,<br />
+    *    + The target class must be predefined in the ontology,<br />
+    *    + The target data property must be predefined in the ontology,<br />
+    *    + No necessary predefined individuals in the ontology.
+    */
+   @Test
+   @Category(NameResolutionTest.class)
+   public void TestSameLocationInMultipleSheetsReference() throws Exception
+   {
+      declareOWLClass(ontology, "Person");
+      declareOWLDataProperty(ontology, "hasName");
+
+      Map<String, Set<Label>> sheets = new LinkedHashMap<>();
+      sheets.put(SHEET1, createCells(createCell("fred", 1, 1)));
+      sheets.put(SHEET2, createCells(createCell("Person", 1, 1)));
+      sheets.put(SHEET3, createCells(createCell("fred", 1, 1)));
+
+      String expression = "Individual: @'Sheet1'!A1 Types: @'Sheet2'!A1 Facts: hasName @'Sheet3'!A1";
+
+      Optional<? extends OWLRendering> result = createOWLAPIRendering(ontology, sheets, DEFAULT_CURRENT_LOCATION, expression, settings);
+      assertThat(result.isPresent(), is(true));
+
+      Set<OWLAxiom> axioms = result.get().getOWLAxioms();
+      assertThat(axioms, hasSize(3));
+      assertThat(axioms, containsInAnyOrder(
+            Declaration(FRED),
+            ClassAssertion(PERSON, FRED),
+            DataPropertyAssertion(HAS_NAME, FRED, Literal("fred", XSD_STRING))));
+   }
+
    /**
     * Test the individual declaration.
     * <p>
@@ -735,6 +829,40 @@ public class ReferenceTest extends IntegrationTestBase
             DataPropertyAssertion(HAS_SSN, FRED, Literal("true", XSD_BOOLEAN))));
    }
 
+   /**
+    * Test individual data property assertion with input datatype xsd:boolean and a false value.
+    * <p>
+    * - Precondition:<br />
+    *    + The target sheet cells must not be empty,<br />
+    *    + The target property must be predefined in the ontology,<br />
+    *    + No necessary predefined individuals in the ontology.
+    * <p>
+    * - Expected results:<br />
+    *    + Creating an individual declaration axiom,<br />
+    *    + Creating a data property assertion axiom with the cell value as its lexical form.
+    */
+   @Test
+   @Category(NameResolutionTest.class)
+   public void TestXSDBooleanFalseInReference() throws Exception
+   {
+      declareOWLDataProperty(ontology, "hasSSN");
+
+      Label cellA1 = createCell("fred", 1, 1);
+      Label cellB1 = createCell("false", 2, 1);
+      Set<Label> cells = createCells(cellA1, cellB1);
+
+      String expression = "Individual: @A1 Facts: hasSSN @B1(xsd:boolean)";
+
+      Optional<? extends OWLRendering> result = createOWLAPIRendering(ontology, SHEET1, cells, expression, settings);
+      assertThat(result.isPresent(), is(true));
+
+      Set<OWLAxiom> axioms = result.get().getOWLAxioms();
+      assertThat(axioms, hasSize(2));
+      assertThat(axioms, containsInAnyOrder(
+            Declaration(FRED),
+            DataPropertyAssertion(HAS_SSN, FRED, Literal("false", XSD_BOOLEAN))));
+   }
+
    /**
     * Test individual data property assertion with input datatype xsd:double.
     * <p>
@@ -871,6 +999,40 @@ public class ReferenceTest extends IntegrationTestBase
             DataPropertyAssertion(HAS_AGE, FRED, Literal("23", XSD_INTEGER))));
    }
 
+   /**
+    * Test individual data property assertion with input datatype xsd:integer and a negative value.
+    * <p>
+    * - Precondition:<br />
+    *    + The target sheet cells must not be empty,<br />
+    *    + The target property must be predefined in the ontology,<br />
+    *    + No necessary predefined individuals in the ontology.
+    * <p>
+    * - Expected results:<br />
+    *    + Creating an individual declaration axiom,<br />
+    *    + Creating a data property assertion axiom with the cell value as its lexical form.
+    */
+   @Test
+   @Category(NameResolutionTest.class)
+   public void TestXSDNegativeIntegerInReference() throws Exception
+   {
+      declareOWLDataProperty(ontology, "hasAge");
+
+      Label cellA1 = createCell("fred", 1, 1);
+      Label cellB1 = createCell("-23", 2, 1);
+      Set<Label> cells = createCells(cellA1, cellB1);
+
+      String expression = "Individual: @A1 Facts: hasAge @B1(xsd:integer)";
+
+      Optional<? extends OWLRendering> result = createOWLAPIRendering(ontology, SHEET1, cells, expression, settings);
+      assertThat(result.isPresent(), is(true));
+
+      Set<OWLAxiom> axioms = result.get().getOWLAxioms();
+      assertThat(axioms, hasSize(2));
+      assertThat(axioms, containsInAnyOrder(
+            Declaration(FRED),
+            DataPropertyAssertion(HAS_AGE, FRED, Literal("-23", XSD_INTEGER))));
+   }
+
    /**
     * Test individual data property assertion with input datatype xsd:short.
     * <p>
@@ -973,6 +1135,76 @@ public class ReferenceTest extends IntegrationTestBase
             DataPropertyAssertion(HAS_AGE, FRED, Literal("23.00", XSD_DECIMAL))));
    }
 
+   /**
+    * Test individual data property assertion with input datatype xsd:integer where the value is read from a numeric
+    * cell.
+    * <p>
+    * - Precondition:<br />
+    *    + The target sheet cells must not be empty,<br />
+    *    + The target property must be predefined in the ontology,<br />
+    *    + No necessary predefined individuals in the ontology.
+    * <p>
+    * - Expected results:<br />
+    *    + Creating an individual declaration axiom,<br />
+    *    + Creating a data property assertion axiom with the same lexical form as a text cell "23".
+    */
+   @Test
+   @Category(NameResolutionTest.class)
+   public void TestXSDIntegerInNumericCellReference() throws Exception
+   {
+      declareOWLDataProperty(ontology, "hasAge");
+
+      Label cellA1 = createCell("fred", 1, 1);
+      Label cellB1 = createCell(23, 2, 1);
+      Set<Label> cells = createCells(cellA1, cellB1);
+
+      String expression = "Individual: @A1 Facts: hasAge @B1(xsd:integer)";
+
+      Optional<? extends OWLRendering> result = createOWLAPIRendering(ontology, SHEET1, cells, expression, settings);
+      assertThat(result.isPresent(), is(true));
+
+      Set<OWLAxiom> axioms = result.get().getOWLAxioms();
+      assertThat(axioms, hasSize(2));
+      assertThat(axioms, containsInAnyOrder(
+            Declaration(FRED),
+            DataPropertyAssertion(HAS_AGE, FRED, Literal("23", XSD_INTEGER))));
+   }
+
+   /**
+    * Test individual data property assertion with input datatype xsd:double where the value is read from a numeric
+    * cell.
+    * <p>
+    * - Precondition:<br />
+    *    + The target sheet cells must not be empty,<br />
+    *    + The target property must be predefined in the ontology,<br />
+    *    + No necessary predefined individuals in the ontology.
+    * <p>
+    * - Expected results:<br />
+    *    + Creating an individual declaration axiom,<br />
+    *    + Creating a data property assertion axiom with the same lexical form as a text cell "34000.09999".
+    */
+   @Test
+   @Category(NameResolutionTest.class)
+   public void TestXSDDoubleInNumericCellReference() throws Exception
+   {
+      declareOWLDataProperty(ontology, "hasSalary");
+
+      Label cellA1 = createCell("fred", 1, 1);
+      Label cellB1 = createCell(34000.09999, 2, 1);
+      Set<Label> cells = createCells(cellA1, cellB1);
+
+      String expression = "Individual: @A1 Facts: hasSalary @B1(xsd:double)";
+
+      Optional<? extends OWLRendering> result = createOWLAPIRendering(ontology, SHEET1, cells, expression, settings);
+      assertThat(result.isPresent(), is(true));
+
+      Set<OWLAxiom> axioms = result.get().getOWLAxioms();
+      assertThat(axioms, hasSize(2));
+      assertThat(axioms, containsInAnyOrder(
+            Declaration(FRED),
+            DataPropertyAssertion(HAS_SALARY, FRED, Literal("34000.09999", XSD_DOUBLE))));
+   }
+
    /**
     * Test individual data property assertion with input datatype xsd:dateTime.
     * <p>
@@ -1865,6 +2097,29 @@ public class ReferenceTest extends IntegrationTestBase
       assertThat(axioms, containsInAnyOrder(Declaration(BARBARA_PUFFINS_SNAKECASE)));
    }
 
+   /**
+    * Test the snake-case encoding directive on a value with several plain words.
+    * <p>
+    * - Expected results:<br />
+    *    + The words are joined by underscores and keep their case.
+    */
+   @Test
+   @Category(DirectiveTest.class)
+   public void TestSnakeCaseEncodeWithPlainWordsInReference() throws Exception
+   {
+      Label cellA1 = createCell("Bayerische Motoren Werke", 1, 1);
+      Set<Label> cells = createCells(cellA1);
+
+      String expression = "Class: @A1(mm:snakeCaseEncode)";
+
+      Optional<? extends OWLRendering> result = createOWLAPIRendering(ontology, SHEET1, cells, expression, settings);
+      assertThat(result.isPresent(), is(true));
+
+      Set<OWLAxiom> axioms = result.get().getOWLAxioms();
+      assertThat(axioms, hasSize(1));
+      assertThat(axioms, containsInAnyOrder(Declaration(BAYERISCHE_MOTOREN_WERKE_SNAKECASE)));
+   }
+
    /**
     * Test (mm:hashEncode) directive.
     * <p>
@@ -1911,6 +2166,30 @@ public class ReferenceTest extends IntegrationTestBase
       assertThat(result.isPresent(), is(false));
    }
 
+   /**
+    * Test (mm:SkipIfOWLEntityExists) directive on the declared class of an expression with other clauses.
+    * <p>
+    * - Precondition:<br />
+    *    + The target class exists already in the ontology,<br />
+    *    + The super class exists already in the ontology.
+    * <p>
+    * - Expected results:<br />
+    *    + No axiom should be created, including the sub-class axiom.
+    */
+   @Test
+   @Category(DirectiveTest.class)
+   public void TestSkipIfOWLEntityExistsWithOtherClausesInReference() throws Exception
+   {
+      declareOWLClasses(ontology, "Car", "Vehicle");
+
+      Label cellA1 = createCell("Car", 1, 1);
+      Set<Label> cells = createCells(cellA1);
+
+      String expression = "Class: @A1(mm:SkipIfOWLEntityExists) SubClassOf: Vehicle";
+      Optional<? extends OWLRendering> result = createOWLAPIRendering(ontology, SHEET1, cells, expression, settings);
+      assertThat(result.isPresent(), is(false));
+   }
+
    /**
     * Test (mm:WarningIfOWLEntityExists) directive.
     * <p>
@@ -2112,6 +2391,97 @@ public class ReferenceTest extends IntegrationTestBase
       assertThat(result.isPresent(), is(false));
    }
 
+   /**
+    * Test the skip-if-empty-location directive on a cell that was never created in a populated row.
+    * <p>
+    * - Expected results:<br />
+    *    + The rendering is skipped, same as for a cell with empty content.
+    */
+   @Test
+   @Category(DirectiveTest.class)
+   public void TestSkipIfEmptyLocationDirectiveWithMissingCellInReference() throws Exception
+   {
+      Label cellA1 = createCell("Car", 1, 1);
+      Set<Label> cells = createCells(cellA1);
+
+      String expression = "Class: @B1(mm:SkipIfEmptyLocation)";
+
+      Optional<? extends OWLRendering> result = createOWLAPIRendering(ontology, SHEET1, cells, expression, settings);
+      assertThat(result.isPresent(), is(false));
+   }
+
+   /**
+    * Test the skip-if-empty-location directive on a cell in a row that was never created.
+    * <p>
+    * - Expected results:<br />
+    *    + The rendering is skipped, same as for a cell with empty content.
+    */
+   @Test
+   @Category(DirectiveTest.class)
+   public void TestSkipIfEmptyLocationDirectiveWithMissingRowInReference() throws Exception
+   {
+      Label cellA1 = createCell("Car", 1, 1);
+      Set<Label> cells = createCells(cellA1);
+
+      String expression = "Class: @A2(mm:SkipIfEmptyLocation)";
+
+      Optional<? extends OWLRendering> result = createOWLAPIRendering(ontology, SHEET1, cells, expression, settings);
+      assertThat(result.isPresent(), is(false));
+   }
+
+   /**
+    * Test the skip-if-empty-location directive on the declared individual of an expression with other clauses.
+    * <p>
+    * - Precondition:<br />
+    *    + The target class and property must be predefined in the ontology,<br />
+    *    + The cells used by the other clauses are not empty.
+    * <p>
+    * - Expected results:<br />
+    *    + No axiom should be created, including the class and property assertions.
+    */
+   @Test
+   @Category(DirectiveTest.class)
+   public void TestSkipIfEmptyLocationDirectiveWithOtherClausesInReference() throws Exception
+   {
+      declareOWLClass(ontology, "Person");
+      declareOWLDataProperty(ontology, "hasName");
+
+      Label cellA1 = createCell("", 1, 1);
+      Label cellB1 = createCell("Fred", 2, 1);
+      Set<Label> cells = createCells(cellA1, cellB1);
+
+      String expression = "Individual: @A1(mm:SkipIfEmptyLocation) Types: Person Facts: hasName @B1";
+
+      Optional<? extends OWLRendering> result = createOWLAPIRendering(ontology, SHEET1, cells, expression, settings);
+      assertThat(result.isPresent(), is(false));
+   }
+
+   /**
+    * Test the default location value directive on an empty cell.
+    * <p>
+    * - Precondition:<br />
+    *    + No necessary predefined classes in the ontology.
+    * <p>
+    * - Expected results:<br />
+    *    + Creating a class declaration axiom named after the default value.
+    */
+   @Test
+   @Category(DirectiveTest.class)
+   public void TestDefaultLocationValueDirectiveInReference() throws Exception
+   {
+      Label cellA1 = createCell("", 1, 1);
+      Set<Label> cells = createCells(cellA1);
+
+      String expression = "Class: @A1(mm:DefaultLocationValue=\"Car\")";
+
+      Optional<? extends OWLRendering> result = createOWLAPIRendering(ontology, SHEET1, cells, expression, settings);
+      assertThat(result.isPresent(), is(true));
+
+      Set<OWLAxiom> axioms = result.get().getOWLAxioms();
+      assertThat(axioms, hasSize(1));
+      assertThat(axioms, containsInAnyOrder(Declaration(CAR)));
+   }
+
 
    /**
     * Test (mm:WarningIfEmptyLocation) directive. Note that the sheet cell is empty.
@@ -0,0 +1,748 @@
+package org.mm.renderer.owlapi;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.Class;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.ClassAssertion;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.DataProperty;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.DataPropertyAssertion;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.Datatype;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.Declaration;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.IRI;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.Literal;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.NamedIndividual;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.SortedSet;
+
+import org.apache.poi.ss.usermodel.Workbook;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.mm.core.settings.ReferenceSettings;
+import org.mm.core.settings.ValueEncodingSetting;
+import org.mm.renderer.IntegrationTestBase;
+import org.mm.renderer.owlapi.AllRenderingTestSuite.DirectiveTest;
+import org.mm.renderer.owlapi.AllRenderingTestSuite.NameResolutionTest;
+import org.mm.rendering.owlapi.OWLRendering;
+import org.mm.ss.SpreadsheetLocation;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLDataProperty;
+import org.semanticweb.owlapi.model.OWLDatatype;
+import org.semanticweb.owlapi.model.OWLNamedIndividual;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+import org.semanticweb.owlapi.vocab.Namespaces;
+
+public class RowRangeTest extends IntegrationTestBase
+{
+   private OWLOntology ontology;
+   private ReferenceSettings settings;
+
+   private static final OWLClass CAR = Class(IRI(ONTOLOGY_ID, "Car"));
+   private static final OWLClass BMW = Class(IRI(ONTOLOGY_ID, "BMW"));
+   private static final OWLClass ZYVOX = Class(IRI(ONTOLOGY_ID, "Zyvox"));
+   private static final OWLClass PERSON = Class(IRI(ONTOLOGY_ID, "Person"));
+   private static final OWLClass STUDENT = Class(IRI(ONTOLOGY_ID, "Student"));
+   private static final OWLClass CAR_OWNER = Class(IRI(ONTOLOGY_ID, "CarOwner"));
+   private static final OWLClass VEHICLE = Class(IRI(ONTOLOGY_ID, "Vehicle"));
+   private static final OWLClass BMW_CAR = Class(IRI(ONTOLOGY_ID, "BMWCar"));
+   private static final OWLClass CAR_BMW = Class(IRI(ONTOLOGY_ID, "CarBMW"));
+   private static final OWLClass BMW_CAR_SNAKECASE = Class(IRI(ONTOLOGY_ID, "BMW_Car"));
+   private static final OWLClass CAR_BMW_SNAKECASE = Class(IRI(ONTOLOGY_ID, "Car_BMW"));
+   private static final OWLNamedIndividual BOB = NamedIndividual(IRI(ONTOLOGY_ID, "bob"));
+   private static final OWLNamedIndividual BOBBY = NamedIndividual(IRI(ONTOLOGY_ID, "bobby"));
+   private static final OWLNamedIndividual CAR_INDIVIDUAL = NamedIndividual(IRI(ONTOLOGY_ID, "Car"));
+   private static final OWLNamedIndividual FRED = NamedIndividual(IRI(ONTOLOGY_ID, "fred"));
+   private static final OWLNamedIndividual FREDDY = NamedIndividual(IRI(ONTOLOGY_ID, "freddy"));
+   private static final OWLDataProperty HAS_AGE = DataProperty(IRI(ONTOLOGY_ID, "hasAge"));
+   private static final OWLDataProperty HAS_DOB = DataProperty(IRI(ONTOLOGY_ID, "hasDOB"));
+   private static final OWLDatatype XSD_LONG = Datatype(IRI(Namespaces.XSD + "long"));
+   private static final OWLDatatype XSD_INTEGER = Datatype(IRI(Namespaces.XSD + "integer"));
+   private static final OWLDatatype XSD_SHORT = Datatype(IRI(Namespaces.XSD + "short"));
+   private static final OWLDatatype XSD_BYTE = Datatype(IRI(Namespaces.XSD + "byte"));
+   private static final OWLDatatype XSD_DATETIME = Datatype(IRI(Namespaces.XSD + "dateTime"));
+   private static final OWLDatatype XSD_DATE = Datatype(IRI(Namespaces.XSD + "date"));
+
+   @Before
+   public void setUp() throws OWLOntologyCreationException
+   {
+      ontology = createOWLOntology();
+      settings = new ReferenceSettings();
+      settings.setValueEncodingSetting(ValueEncodingSetting.RDF_ID);
+   }
+
+   /**
+    * Test row-wildcard reference for declaring a class in every row of a range.
+    * <p>
+    * - Precondition:<br />
+    *    + The target sheet cells must not be empty,<br />
+    *    + No necessary predefined classes in the ontology.
+    * <p>
+    * - Expected results:<br />
+    *    + Each row renders the class named in its own cell, in row order.
+    */
+   @Test
+   @Category(NameResolutionTest.class)
+   public void TestRowWildcardOverRowRange() throws Exception
+   {
+      Label cellA1 = createCell("Car", 1, 1);
+      Label cellA2 = createCell("BMW", 1, 2);
+      Label cellA3 = createCell("Zyvox", 1, 3);
+      Set<Label> cells = createCells(cellA1, cellA2, cellA3);
+
+      String expression = "Class: @A*";
+
+      List<Optional<? extends OWLRendering>> results = createOWLAPIRenderings(ontology, SHEET1, cells, 1, 3, expression, settings);
+      assertThat(results, hasSize(3));
+
+      OWLClass[] expectedClasses = { CAR, BMW, ZYVOX };
+      for (int i = 0; i < expectedClasses.length; i++) {
+         Optional<? extends OWLRendering> result = results.get(i);
+         assertThat(result.isPresent(), is(true));
+
+         Set<OWLAxiom> axioms = result.get().getOWLAxioms();
+         assertThat(axioms, hasSize(1));
+         assertThat(axioms, containsInAnyOrder(Declaration(expectedClasses[i])));
+      }
+   }
+
+   /**
+    * Test an individual declaration with class assertion over a range of rows in which the same individuals appear
+    * more than once.
+    * <p>
+    * - Precondition:<br />
+    *    + The target sheet cells must not be empty,<br />
+    *    + The target class must be predefined in the ontology,<br />
+    *    + No necessary predefined individuals in the ontology.
+    * <p>
+    * - Expected results:<br />
+    *    + Every row asserts the class of its own individual,<br />
+    *    + The distinct axioms of the run are one declaration and one class assertion per distinct individual.
+    */
+   @Test
+   @Category(NameResolutionTest.class)
+   public void TestRepeatedDeclarationsOverRowRange() throws Exception
+   {
+      declareOWLClass(ontology, "Person");
+
+      Label cellA1 = createCell("fred", 1, 1);
+      Label cellA2 = createCell("bob", 1, 2);
+      Label cellA3 = createCell("fred", 1, 3);
+      Label cellA4 = createCell("bob", 1, 4);
+      Label cellA5 = createCell("freddy", 1, 5);
+      Set<Label> cells = createCells(cellA1, cellA2, cellA3, cellA4, cellA5);
+
+      String expression = "Individual: @A* Types: Person";
+
+      List<Optional<? extends OWLRendering>> results = createOWLAPIRenderings(ontology, SHEET1, cells, 1, 5, expression, settings);
+      assertThat(results, hasSize(5));
+
+      OWLNamedIndividual[] expectedIndividuals = { FRED, BOB, FRED, BOB, FREDDY };
+      for (int i = 0; i < expectedIndividuals.length; i++) {
+         Optional<? extends OWLRendering> result = results.get(i);
+         assertThat(result.isPresent(), is(true));
+         assertThat(result.get().getOWLAxioms(), hasItem(ClassAssertion(PERSON, expectedIndividuals[i])));
+      }
+
+      Set<OWLAxiom> axioms = collectOWLAxioms(results);
+      assertThat(axioms, hasSize(6));
+      assertThat(axioms, containsInAnyOrder(
+            Declaration(FRED), ClassAssertion(PERSON, FRED),
+            Declaration(BOB), ClassAssertion(PERSON, BOB),
+            Declaration(FREDDY), ClassAssertion(PERSON, FREDDY)));
+   }
+
+   /**
+    * Test a name that is rendered as a class in one row and as an individual in the next one, with the same
+    * renderer.
+    * <p>
+    * - Precondition:<br />
+    *    + The target sheet cells must not be empty,<br />
+    *    + No necessary predefined classes or individuals in the ontology.
+    * <p>
+    * - Expected results:<br />
+    *    + The same IRI gives a class in the first row and an individual in the second row.
+    */
+   @Test
+   @Category(NameResolutionTest.class)
+   public void TestSameNameAsClassAndIndividualOverRowRange() throws Exception
+   {
+      Label cellA1 = createCell("fred", 1, 1);
+      Label cellB1 = createCell("Car", 2, 1);
+      Label cellA2 = createCell("Car", 1, 2);
+      Label cellB2 = createCell("Vehicle", 2, 2);
+      Set<Label> cells = createCells(cellA1, cellB1, cellA2, cellB2);
+
+      String expression = "Individual: @A* Types: @B*";
+
+      List<Optional<? extends OWLRendering>> results = createOWLAPIRenderings(ontology, SHEET1, cells, 1, 2, expression, settings);
+      assertThat(results, hasSize(2));
+
+      assertThat(results.get(0).isPresent(), is(true));
+      assertThat(results.get(0).get().getOWLAxioms(), containsInAnyOrder(
+            Declaration(FRED),
+            ClassAssertion(CAR, FRED)));
+      assertThat(results.get(1).isPresent(), is(true));
+      assertThat(results.get(1).get().getOWLAxioms(), containsInAnyOrder(
+            Declaration(CAR_INDIVIDUAL),
+            ClassAssertion(VEHICLE, CAR_INDIVIDUAL)));
+   }
+
+   /**
+    * Test that one renderer reused for every row of a range gives the same renderings as a new renderer and data
+    * source for each row.
+    * <p>
+    * - Precondition:<br />
+    *    + The target sheet cells must not be empty,<br />
+    *    + The target class must be predefined in the ontology,<br />
+    *    + No necessary predefined individuals in the ontology.
+    */
+   @Test
+   @Category(NameResolutionTest.class)
+   public void TestReusedRendererOverRowRange() throws Exception
+   {
+      declareOWLClass(ontology, "Person");
+
+      Label cellA1 = createCell("fred", 1, 1);
+      Label cellA2 = createCell("bob", 1, 2);
+      Label cellA3 = createCell("fred", 1, 3);
+      Set<Label> cells = createCells(cellA1, cellA2, cellA3);
+      Workbook workbook = createWorkbook(SHEET1, cells);
+
+      String expression = "Individual: @A* Types: Person";
+
+      List<Optional<? extends OWLRendering>> results = createOWLAPIRenderings(ontology, workbook, SHEET1, 1, 3, expression, settings);
+      assertThat(results, hasSize(3));
+
+      for (int row = 1; row <= 3; row++) {
+         SpreadsheetLocation location = new SpreadsheetLocation(SHEET1, 1, row);
+         Optional<? extends OWLRendering> expected = createOWLAPIRendering(ontology, workbook, location, expression, settings);
+         assertThat(expected.isPresent(), is(true));
+
+         Optional<? extends OWLRendering> result = results.get(row - 1);
+         assertThat(result.isPresent(), is(true));
+         assertThat(result.get().getOWLAxioms(), is(expected.get().getOWLAxioms()));
+      }
+      assertThat(results.get(1).get().getOWLAxioms(), containsInAnyOrder(
+            Declaration(BOB),
+            ClassAssertion(PERSON, BOB)));
+   }
+
+   /**
+    * Test row-wildcard reference for declaring a class in every row of the used range of a sheet. The first row of
+    * the sheet is not populated.
+    * <p>
+    * - Precondition:<br />
+    *    + The target sheet cells must not be empty,<br />
+    *    + No necessary predefined classes in the ontology.
+    * <p>
+    * - Expected results:<br />
+    *    + Only the populated rows, from the first to the last one, are rendered.
+    */
+   @Test
+   @Category(NameResolutionTest.class)
+   public void TestRowWildcardOverUsedRange() throws Exception
+   {
+      Label cellA2 = createCell("Car", 1, 2);
+      Label cellA3 = createCell("BMW", 1, 3);
+      Label cellA4 = createCell("Zyvox", 1, 4);
+      Set<Label> cells = createCells(cellA2, cellA3, cellA4);
+
+      String expression = "Class: @A*";
+
+      List<Optional<? extends OWLRendering>> results = createOWLAPIRenderings(ontology, SHEET1, cells, expression, settings);
+      assertThat(results, hasSize(3));
+
+      OWLClass[] expectedClasses = { CAR, BMW, ZYVOX };
+      for (int i = 0; i < expectedClasses.length; i++) {
+         Optional<? extends OWLRendering> result = results.get(i);
+         assertThat(result.isPresent(), is(true));
+
+         Set<OWLAxiom> axioms = result.get().getOWLAxioms();
+         assertThat(axioms, hasSize(1));
+         assertThat(axioms, containsInAnyOrder(Declaration(expectedClasses[i])));
+      }
+   }
+
+   /**
+    * Test class assertions over a range of rows where the class column repeats a handful of values, the way a
+    * categorical column does.
+    * <p>
+    * - Precondition:<br />
+    *    + The target sheet cells must not be empty,<br />
+    *    + No necessary predefined classes or individuals in the ontology.
+    * <p>
+    * - Expected results:<br />
+    *    + Each row asserts the class named in its own row, never a value of a neighbouring row.
+    */
+   @Test
+   @Category(NameResolutionTest.class)
+   public void TestRepeatedValuesColumnOverRowRange() throws Exception
+   {
+      OWLClass[] categories = { PERSON, STUDENT, CAR_OWNER };
+      String[] categoryNames = { "Person", "Student", "CarOwner" };
+      int numberOfRows = 300;
+
+      Set<Label> cells = new HashSet<>();
+      for (int row = 1; row <= numberOfRows; row++) {
+         cells.add(createCell("p" + row, 1, row));
+         cells.add(createCell(categoryNames[row % categoryNames.length], 2, row));
+      }
+
+      String expression = "Individual: @A* Types: @B*";
+
+      List<Optional<? extends OWLRendering>> results = createOWLAPIRenderings(ontology, SHEET1, cells, 1, numberOfRows, expression, settings);
+      assertThat(results, hasSize(numberOfRows));
+
+      for (int row = 1; row <= numberOfRows; row++) {
+         Optional<? extends OWLRendering> result = results.get(row - 1);
+         assertThat(result.isPresent(), is(true));
+
+         OWLNamedIndividual individual = NamedIndividual(IRI(ONTOLOGY_ID, "p" + row));
+         Set<OWLAxiom> axioms = result.get().getOWLAxioms();
+         assertThat(axioms, hasSize(2));
+         assertThat(axioms, containsInAnyOrder(
+               Declaration(individual),
+               ClassAssertion(categories[row % categories.length], individual)));
+      }
+   }
+
+   /**
+    * Test the camel-case encoding directive over a range of rows in which an input comes back after a different one.
+    * <p>
+    * - Expected results:<br />
+    *    + Every row is encoded from its own cell value.
+    */
+   @Test
+   @Category(DirectiveTest.class)
+   public void TestCamelCaseEncodeOverRowRange() throws Exception
+   {
+      Label cellA1 = createCell("BMW Car", 1, 1);
+      Label cellA2 = createCell("Car BMW", 1, 2);
+      Label cellA3 = createCell("BMW Car", 1, 3);
+      Set<Label> cells = createCells(cellA1, cellA2, cellA3);
+
+      String expression = "Class: @A*(mm:camelCaseEncode)";
+
+      OWLClass[] expectedClasses = { BMW_CAR, CAR_BMW, BMW_CAR };
+      List<Set<OWLAxiom>> results = renderEveryRow(cells, expectedClasses.length, expression);
+      for (int i = 0; i < expectedClasses.length; i++) {
+         assertThat(results.get(i), containsInAnyOrder(Declaration(expectedClasses[i])));
+      }
+   }
+
+   /**
+    * Test the snake-case encoding directive over a range of rows in which an input comes back after a different one.
+    * <p>
+    * - Expected results:<br />
+    *    + Every row is encoded from its own cell value.
+    */
+   @Test
+   @Category(DirectiveTest.class)
+   public void TestSnakeCaseEncodeOverRowRange() throws Exception
+   {
+      Label cellA1 = createCell("BMW Car", 1, 1);
+      Label cellA2 = createCell("Car BMW", 1, 2);
+      Label cellA3 = createCell("BMW Car", 1, 3);
+      Set<Label> cells = createCells(cellA1, cellA2, cellA3);
+
+      String expression = "Class: @A*(mm:snakeCaseEncode)";
+
+      OWLClass[] expectedClasses = { BMW_CAR_SNAKECASE, CAR_BMW_SNAKECASE, BMW_CAR_SNAKECASE };
+      List<Set<OWLAxiom>> results = renderEveryRow(cells, expectedClasses.length, expression);
+      for (int i = 0; i < expectedClasses.length; i++) {
+         assertThat(results.get(i), containsInAnyOrder(Declaration(expectedClasses[i])));
+      }
+   }
+
+   /**
+    * Test individual data property assertions with input datatype xsd:integer in every row of a range.
+    * <p>
+    * - Precondition:<br />
+    *    + The target sheet cells must not be empty,<br />
+    *    + The target property must be predefined in the ontology.
+    * <p>
+    * - Expected results:<br />
+    *    + Each row renders a literal whose lexical form is its own cell value.
+    */
+   @Test
+   @Category(NameResolutionTest.class)
+   public void TestXSDIntegerOverRowRange() throws Exception
+   {
+      declareOWLDataProperty(ontology, "hasAge");
+
+      String[] ages = { "23", "-23", "0", "23", "120" };
+
+      String expression = "Individual: @A* Facts: hasAge @B*(xsd:integer)";
+
+      List<Set<OWLAxiom>> results = renderEveryRow(createPersonCells(ages), ages.length, expression);
+      assertPersonFacts(results, HAS_AGE, XSD_INTEGER, ages);
+   }
+
+   /**
+    * Test individual data property assertions with input datatype xsd:long for the bounds of its value space.
+    * <p>
+    * - Precondition:<br />
+    *    + The target sheet cells must not be empty,<br />
+    *    + The target property must be predefined in the ontology.
+    * <p>
+    * - Expected results:<br />
+    *    + Each row renders a literal whose lexical form is its own cell value.
+    */
+   @Test
+   @Category(NameResolutionTest.class)
+   public void TestXSDLongBoundsOverRowRange() throws Exception
+   {
+      declareOWLDataProperty(ontology, "hasAge");
+
+      String[] ages = { "9223372036854775807", "-9223372036854775808" };
+
+      String expression = "Individual: @A* Facts: hasAge @B*(xsd:long)";
+
+      List<Set<OWLAxiom>> results = renderEveryRow(createPersonCells(ages), ages.length, expression);
+      assertPersonFacts(results, HAS_AGE, XSD_LONG, ages);
+   }
+
+   /**
+    * Test individual data property assertions with input datatype xsd:short for the bounds of its value space.
+    * <p>
+    * - Precondition:<br />
+    *    + The target sheet cells must not be empty,<br />
+    *    + The target property must be predefined in the ontology.
+    * <p>
+    * - Expected results:<br />
+    *    + Each row renders a literal whose lexical form is its own cell value.
+    */
+   @Test
+   @Category(NameResolutionTest.class)
+   public void TestXSDShortBoundsOverRowRange() throws Exception
+   {
+      declareOWLDataProperty(ontology, "hasAge");
+
+      String[] ages = { "32767", "-32768" };
+
+      String expression = "Individual: @A* Facts: hasAge @B*(xsd:short)";
+
+      List<Set<OWLAxiom>> results = renderEveryRow(createPersonCells(ages), ages.length, expression);
+      assertPersonFacts(results, HAS_AGE, XSD_SHORT, ages);
+   }
+
+   /**
+    * Test individual data property assertions with input datatype xsd:byte for the bounds of its value space.
+    * <p>
+    * - Precondition:<br />
+    *    + The target sheet cells must not be empty,<br />
+    *    + The target property must be predefined in the ontology.
+    * <p>
+    * - Expected results:<br />
+    *    + Each row renders a literal whose lexical form is its own cell value.
+    */
+   @Test
+   @Category(NameResolutionTest.class)
+   public void TestXSDByteBoundsOverRowRange() throws Exception
+   {
+      declareOWLDataProperty(ontology, "hasAge");
+
+      String[] ages = { "127", "-128" };
+
+      String expression = "Individual: @A* Facts: hasAge @B*(xsd:byte)";
+
+      List<Set<OWLAxiom>> results = renderEveryRow(createPersonCells(ages), ages.length, expression);
+      assertPersonFacts(results, HAS_AGE, XSD_BYTE, ages);
+   }
+
+   /**
+    * Test individual data property assertions with input datatype xsd:date in every row of a range, where a date
+    * comes back after a different one.
+    * <p>
+    * - Precondition:<br />
+    *    + The target sheet cells must not be empty,<br />
+    *    + The target property must be predefined in the ontology.
+    * <p>
+    * - Expected results:<br />
+    *    + Each row renders a literal whose lexical form is its own cell value.
+    */
+   @Test
+   @Category(NameResolutionTest.class)
+   public void TestXSDDateOverRowRange() throws Exception
+   {
+      declareOWLDataProperty(ontology, "hasDOB");
+
+      String[] dates = { "1999-01-01", "2000-02-29", "1999-01-01", "1999-12-31" };
+
+      String expression = "Individual: @A* Facts: hasDOB @B*(xsd:date)";
+
+      List<Set<OWLAxiom>> results = renderEveryRow(createPersonCells(dates), dates.length, expression);
+      assertPersonFacts(results, HAS_DOB, XSD_DATE, dates);
+   }
+
+   /**
+    * Test individual data property assertions with input datatype xsd:dateTime in every row of a range, where a
+    * date-time comes back after a different one.
+    * <p>
+    * - Precondition:<br />
+    *    + The target sheet cells must not be empty,<br />
+    *    + The target property must be predefined in the ontology.
+    * <p>
+    * - Expected results:<br />
+    *    + Each row renders a literal whose lexical form is its own cell value.
+    */
+   @Test
+   @Category(NameResolutionTest.class)
+   public void TestXSDDateTimeOverRowRange() throws Exception
+   {
+      declareOWLDataProperty(ontology, "hasDOB");
+
+      String[] dateTimes = { "1999-01-01T10:10:10", "2000-02-29T23:59:59", "1999-01-01T10:10:10" };
+
+      String expression = "Individual: @A* Facts: hasDOB @B*(xsd:dateTime)";
+
+      List<Set<OWLAxiom>> results = renderEveryRow(createPersonCells(dateTimes), dateTimes.length, expression);
+      assertPersonFacts(results, HAS_DOB, XSD_DATETIME, dateTimes);
+   }
+
+   /**
+    * Test the skip-if-empty-location directive over a sparse range of rows. Row 2 holds an empty cell and row 4 does
+    * not exist at all.
+    * <p>
+    * - Expected results:<br />
+    *    + Rows with an empty location are skipped as a whole,<br />
+    *    + The other rows render as usual.
+    */
+   @Test
+   @Category(DirectiveTest.class)
+   public void TestSkipIfEmptyLocationDirectiveOverRowRange() throws Exception
+   {
+      Label cellA1 = createCell("Car", 1, 1);
+      Label cellA2 = createCell("", 1, 2);
+      Label cellA3 = createCell("BMW", 1, 3);
+      Label cellA5 = createCell("Zyvox", 1, 5);
+      Set<Label> cells = createCells(cellA1, cellA2, cellA3, cellA5);
+
+      String expression = "Class: @A*(mm:SkipIfEmptyLocation)";
+
+      List<Optional<? extends OWLRendering>> results = createOWLAPIRenderings(ontology, SHEET1, cells, 1, 5, expression, settings);
+      assertThat(results, hasSize(5));
+
+      assertThat(results.get(1).isPresent(), is(false));
+      assertThat(results.get(3).isPresent(), is(false));
+
+      assertThat(results.get(0).isPresent(), is(true));
+      assertThat(results.get(0).get().getOWLAxioms(), containsInAnyOrder(Declaration(CAR)));
+      assertThat(results.get(2).isPresent(), is(true));
+      assertThat(results.get(2).get().getOWLAxioms(), containsInAnyOrder(Declaration(BMW)));
+      assertThat(results.get(4).isPresent(), is(true));
+      assertThat(results.get(4).get().getOWLAxioms(), containsInAnyOrder(Declaration(ZYVOX)));
+   }
+
+   /**
+    * Test the skip-if-empty-location directive on the declared individual over a sparse range of rows, where the
+    * other clauses of the expression do not depend on the skipped cell.
+    * <p>
+    * - Precondition:<br />
+    *    + The target class must be predefined in the ontology.
+    * <p>
+    * - Expected results:<br />
+    *    + Rows with an empty location are skipped as a whole, including their class assertion,<br />
+    *    + The other rows render as usual.
+    */
+   @Test
+   @Category(DirectiveTest.class)
+   public void TestSkipIfEmptyLocationDirectiveWithOtherClausesOverRowRange() throws Exception
+   {
+      declareOWLClass(ontology, "Person");
+
+      Label cellA1 = createCell("fred", 1, 1);
+      Label cellA2 = createCell("", 1, 2);
+      Label cellA4 = createCell("bob", 1, 4);
+      Set<Label> cells = createCells(cellA1, cellA2, cellA4);
+
+      String expression = "Individual: @A*(mm:SkipIfEmptyLocation) Types: Person";
+
+      List<Optional<? extends OWLRendering>> results = createOWLAPIRenderings(ontology, SHEET1, cells, 1, 4, expression, settings);
+      assertThat(results, hasSize(4));
+
+      assertThat(results.get(1).isPresent(), is(false));
+      assertThat(results.get(2).isPresent(), is(false));
+
+      assertThat(results.get(0).isPresent(), is(true));
+      assertThat(results.get(0).get().getOWLAxioms(), containsInAnyOrder(
+            Declaration(FRED), ClassAssertion(PERSON, FRED)));
+      assertThat(results.get(3).isPresent(), is(true));
+      assertThat(results.get(3).get().getOWLAxioms(), containsInAnyOrder(
+            Declaration(BOB), ClassAssertion(PERSON, BOB)));
+   }
+
+   /**
+    * Test the error-if-empty-location directive over a range of rows with some empty cells, collecting the errors
+    * instead of stopping at the first one.
+    * <p>
+    * - Expected results:<br />
+    *    + One error is recorded for each row with an empty location, in row order,<br />
+    *    + The other rows render as usual.
+    */
+   @Test
+   @Category(DirectiveTest.class)
+   public void TestErrorIfEmptyLocationDirectiveOverRowRange() throws Exception
+   {
+      Label cellA1 = createCell("Car", 1, 1);
+      Label cellA2 = createCell("", 1, 2);
+      Label cellA3 = createCell("BMW", 1, 3);
+      Label cellA4 = createCell("", 1, 4);
+      Label cellA5 = createCell("Zyvox", 1, 5);
+      Set<Label> cells = createCells(cellA1, cellA2, cellA3, cellA4, cellA5);
+
+      String expression = "Class: @A*(mm:ErrorIfEmptyLocation)";
+
+      List<RenderingError> errors = new ArrayList<>();
+      List<Optional<? extends OWLRendering>> results = createOWLAPIRenderings(ontology, SHEET1, cells, 1, 5, expression, settings, errors);
+      assertThat(results, hasSize(5));
+
+      assertThat(errors, hasSize(2));
+      assertThat(errors.get(0).getSheetName(), is(SHEET1));
+      assertThat(errors.get(0).getRowNumber(), is(2));
+      assertThat(errors.get(1).getSheetName(), is(SHEET1));
+      assertThat(errors.get(1).getRowNumber(), is(4));
+
+      assertThat(results.get(1).isPresent(), is(false));
+      assertThat(results.get(3).isPresent(), is(false));
+      assertThat(collectOWLAxioms(results), containsInAnyOrder(
+            Declaration(CAR), Declaration(BMW), Declaration(ZYVOX)));
+   }
+
+   /**
+    * Test re-rendering only the rows that changed between two versions of a sheet. The axioms to remove and to add
+    * must be the same as the difference between two full renderings.
+    * <p>
+    * - Precondition:<br />
+    *    + No necessary predefined classes or individuals in the ontology.
+    */
+   @Test
+   @Category(NameResolutionTest.class)
+   public void TestIncrementalRenderingOfChangedRows() throws Exception
+   {
+      Set<Label> oldCells = createCells(
+            createCell("fred", 1, 1), createCell("Person", 2, 1),
+            createCell("bob", 1, 2), createCell("Person", 2, 2),
+            createCell("alfred", 1, 3), createCell("Student", 2, 3),
+            createCell("freddy", 1, 4), createCell("Student", 2, 4));
+      Set<Label> newCells = createCells(
+            createCell("fred", 1, 1), createCell("Person", 2, 1),
+            createCell("bob", 1, 2), createCell("Student", 2, 2),
+            createCell("alfred", 1, 3), createCell("Student", 2, 3),
+            createCell("bobby", 1, 4), createCell("Student", 2, 4));
+
+      SortedSet<Integer> changedRows = findChangedRows(oldCells, newCells);
+      assertThat(changedRows, contains(2, 4));
+
+      String expression = "Individual: @A* Types: @B*";
+
+      List<Optional<? extends OWLRendering>> oldResults = createOWLAPIRenderings(ontology, SHEET1, oldCells, 1, 4, expression, settings);
+      List<Optional<? extends OWLRendering>> newResults = createOWLAPIRenderings(ontology, SHEET1, newCells, 1, 4, expression, settings);
+
+      Set<OWLAxiom> oldAxioms = new HashSet<>();
+      Set<OWLAxiom> unchangedAxioms = new HashSet<>();
+      Set<OWLAxiom> oldChangedAxioms = new HashSet<>();
+      for (int rowNumber = 1; rowNumber <= 4; rowNumber++) {
+         Set<OWLAxiom> axioms = oldResults.get(rowNumber - 1).get().getOWLAxioms();
+         oldAxioms.addAll(axioms);
+         if (changedRows.contains(rowNumber)) {
+            oldChangedAxioms.addAll(axioms);
+         } else {
+            unchangedAxioms.addAll(axioms);
+         }
+      }
+      Set<OWLAxiom> newAxioms = collectOWLAxioms(newResults);
+
+      Workbook newWorkbook = createWorkbook(SHEET1, newCells);
+      Set<OWLAxiom> newChangedAxioms = new HashSet<>();
+      for (int rowNumber : changedRows) {
+         for (Optional<? extends OWLRendering> result : createOWLAPIRenderings(ontology, newWorkbook, SHEET1, rowNumber,
+               rowNumber, expression, settings)) {
+            newChangedAxioms.addAll(result.get().getOWLAxioms());
+         }
+      }
+
+      Set<OWLAxiom> axiomsToRemove = new HashSet<>(oldChangedAxioms);
+      axiomsToRemove.removeAll(newChangedAxioms);
+      axiomsToRemove.removeAll(unchangedAxioms);
+      Set<OWLAxiom> axiomsToAdd = new HashSet<>(newChangedAxioms);
+      axiomsToAdd.removeAll(oldAxioms);
+
+      Set<OWLAxiom> expectedAxiomsToRemove = new HashSet<>(oldAxioms);
+      expectedAxiomsToRemove.removeAll(newAxioms);
+      Set<OWLAxiom> expectedAxiomsToAdd = new HashSet<>(newAxioms);
+      expectedAxiomsToAdd.removeAll(oldAxioms);
+
+      assertThat(axiomsToRemove, is(expectedAxiomsToRemove));
+      assertThat(axiomsToAdd, is(expectedAxiomsToAdd));
+      assertThat(axiomsToRemove, containsInAnyOrder(
+            ClassAssertion(PERSON, BOB),
+            Declaration(FREDDY),
+            ClassAssertion(STUDENT, FREDDY)));
+      assertThat(axiomsToAdd, containsInAnyOrder(
+            ClassAssertion(STUDENT, BOB),
+            Declaration(BOBBY),
+            ClassAssertion(STUDENT, BOBBY)));
+   }
+
+   /**
+    * Renders the expression over the rows from the first to the given last row with a single renderer and checks
+    * that every row gives a rendering.
+    *
+    * @return The axioms of each row, in row order
+    */
+   private List<Set<OWLAxiom>> renderEveryRow(Set<Label> cells, int lastRowNumber, String expression)
+         throws Exception
+   {
+      List<Optional<? extends OWLRendering>> results = createOWLAPIRenderings(ontology, SHEET1, cells, 1, lastRowNumber,
+            expression, settings);
+      assertThat(results, hasSize(lastRowNumber));
+
+      List<Set<OWLAxiom>> axioms = new ArrayList<>();
+      for (Optional<? extends OWLRendering> result : results) {
+         assertThat(result.isPresent(), is(true));
+         axioms.add(result.get().getOWLAxioms());
+      }
+      return axioms;
+   }
+
+   /**
+    * @return Cells with the individual name person&lt;n&gt; in column A and the n-th value in column B of row n
+    */
+   private Set<Label> createPersonCells(String... values)
+   {
+      Set<Label> cells = new HashSet<>();
+      for (int row = 1; row <= values.length; row++) {
+         cells.add(createCell("person" + row, 1, row));
+         cells.add(createCell(values[row - 1], 2, row));
+      }
+      return cells;
+   }
+
+   /**
+    * Checks that the n-th row declares the individual person&lt;n&gt; and asserts the property with the n-th lexical
+    * form and nothing else.
+    */
+   private void assertPersonFacts(List<Set<OWLAxiom>> results, OWLDataProperty property, OWLDatatype datatype,
+         String... lexicalForms)
+   {
+      assertThat(results, hasSize(lexicalForms.length));
+      for (int row = 1; row <= lexicalForms.length; row++) {
+         OWLNamedIndividual person = NamedIndividual(IRI(ONTOLOGY_ID, "person" + row));
+         assertThat(results.get(row - 1), containsInAnyOrder(
+               Declaration(person),
+               DataPropertyAssertion(property, person, Literal(lexicalForms[row - 1], datatype))));
+      }
+   }
+}
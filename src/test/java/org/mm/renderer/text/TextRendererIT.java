@@ -16,6 +16,7 @@ import org.mm.ss.SpreadsheetLocation;
 import org.semanticweb.owlapi.model.OWLOntologyCreationException;
 
 import java.io.IOException;
+import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 
@@ -440,6 +441,24 @@ public class TextRendererIT extends IntegrationTestBase
     Assert.assertEquals(expectedRendering, clean(textRendering.get().getRendering()));
   }
 
+  @Test public void TestRowWildcardWithReusedRenderer() throws MappingMasterException, ParseException, IOException
+  {
+    String expression = "Class: @A*";
+    String[] expectedRenderings = { "Class: Car", "Class: BMW", "Class: Car" };
+    Label cellA1 = createCell("Car", 1, 1);
+    Label cellA2 = createCell("BMW", 1, 2);
+    Label cellA3 = createCell("Car", 1, 3);
+    Set<Label> cells = createCells(cellA1, cellA2, cellA3);
+    List<Optional<? extends TextRendering>> textRenderings = createTextRenderings(SHEET1, cells, 1, 3, expression,
+        settings);
+
+    Assert.assertEquals(expectedRenderings.length, textRenderings.size());
+    for (int i = 0; i < expectedRenderings.length; i++) {
+      Assert.assertTrue(textRenderings.get(i).isPresent());
+      Assert.assertEquals(expectedRenderings[i], clean(textRenderings.get(i).get().getRendering()));
+    }
+  }
+
   @Test public void TestClassQualifiedInReference() throws MappingMasterException, ParseException, IOException
   {
     String expression = "Class: @A1(Class)";